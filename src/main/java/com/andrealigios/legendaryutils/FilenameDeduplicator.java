@@ -0,0 +1,315 @@
+/* MIT License
+
+Copyright (c) 2018 Andrea Ligios
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+package com.andrealigios.legendaryutils;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * 
+ * @author Andrea Ligios
+ * @version 1.0.0
+ * @see <a href="https://github.com/andrea-ligios/legendary-utils">Legendary Utils</a>
+ * 
+ * FilenameDeduplicator tells whether a (sanitized) filename has already been used in a folder, case-insensitively, 
+ * the way Windows and macOS File Systems compare names.
+ * <p>
+ * It is meant for billions of names, way more than a {@code HashSet<String>} could hold on the heap:
+ * <ul>
+ * <li> every name is stored off-heap as a 64-bit fingerprint of its case-folded form, in an open-addressing hash table
+ * <li> the case-folded name itself is appended to an off-heap log, and read back only when two fingerprints collide, 
+ *      so that the answer is always exact
+ * <li> once the memory budget is exhausted, further storage is memory-mapped from temporary files in the spill directory,
+ *      letting the Operating System keep in RAM only what's being used
+ * </ul>
+ * Lookups and insertions read the {@link CharSequence} in place and don't allocate 
+ * (apart from growing the storage), so a reused {@link StringBuilder} can be passed, e.g. the one filled by 
+ * {@link TransformPipeline#applyTo(CharSequence, StringBuilder)}.
+ * <p>
+ * Folders are identified by a number chosen by the caller (for example a counter assigned while walking the target tree):
+ * the same name in two different folders is not a duplicate.
+ * <p>
+ * Not thread-safe. Closing it releases the memory budget and deletes the spill files.
+ * 
+ */
+public class FilenameDeduplicator implements Closeable {
+
+    final static int            SLOT_BYTES          = 16;   // fingerprint + position of the key in the log
+    final static int            MAX_PAGE_SHIFT      = 30;   // 1GB pages and spill file mappings
+    final static int            MIN_KEY_PAGE_SHIFT  = 16;   // 64KB pages
+    final static int            AVERAGE_KEY_BYTES   = 64;
+    final static long           MIN_SLOTS           = 16;
+
+    private final static long   FNV_OFFSET          = 0xcbf29ce484222325L;
+    private final static long   FNV_PRIME           = 0x100000001b3L;
+
+    private final PagedBuffer.Budget    budget;
+    private final int                   maxPageShift;
+    private final PagedBuffer           keys;
+    private long                        keysEnd     = 8;    // position 0 marks an empty slot
+    private PagedBuffer                 table;
+    private long                        mask;
+    private long                        size;
+
+    FilenameDeduplicator(long expectedNames, long memoryBudget, Path spillDirectory, int maxPageShift) {
+        if (expectedNames < 0) {
+            throw new IllegalArgumentException("Expected names can't be negative: " + expectedNames);
+        }
+        if (memoryBudget < 0) {
+            throw new IllegalArgumentException("Memory budget can't be negative: " + memoryBudget);
+        }
+        this.budget         = new PagedBuffer.Budget(memoryBudget, spillDirectory);
+        this.maxPageShift   = maxPageShift;
+
+        long keyBytes = Math.max(expectedNames, 1) * AVERAGE_KEY_BYTES;
+        int keyPageShift = Math.max(MIN_KEY_PAGE_SHIFT, 64 - Long.numberOfLeadingZeros(keyBytes - 1));
+        this.keys = new PagedBuffer(Math.min(keyPageShift, maxPageShift), maxPageShift, budget);
+
+        // Growing happens at 2/3 of the slots
+        this.table = newTable(Math.max(MIN_SLOTS, Long.highestOneBit(expectedNames * 3 / 2 + 1) << 1));
+    }
+
+    /**
+     * Create a deduplicator held entirely in direct memory.
+     * 
+     * @param   expectedNames   how many names are expected, to size the storage upfront (it grows anyway if needed)
+     * @return                  an empty deduplicator
+     */
+    public static FilenameDeduplicator inMemory(long expectedNames) {
+        return new FilenameDeduplicator(expectedNames, Long.MAX_VALUE, null, MAX_PAGE_SHIFT);
+    }
+
+    /**
+     * Create a deduplicator using up to {@code memoryBudget} bytes of direct memory, then memory-mapped files.
+     * A budget of zero memory-maps everything.
+     * 
+     * @param   expectedNames   how many names are expected, to size the storage upfront (it grows anyway if needed)
+     * @param   memoryBudget    the maximum amount of direct memory to allocate, in bytes
+     * @param   spillDirectory  where the temporary files are created
+     * @return                  an empty deduplicator
+     * @throws                  NullPointerException if spillDirectory is null
+     */
+    public static FilenameDeduplicator spillingToDisk(long expectedNames, long memoryBudget, Path spillDirectory) {
+        Objects.requireNonNull(spillDirectory, "spillDirectory");
+        return new FilenameDeduplicator(expectedNames, memoryBudget, spillDirectory, MAX_PAGE_SHIFT);
+    }
+
+    /**
+     * Add a filename to the default folder (0).
+     * 
+     * @param   filename    the file name to add
+     * @return              true if it wasn't already there, ignoring case
+     */
+    public boolean add(CharSequence filename) {
+        return add(0, filename);
+    }
+
+    /**
+     * Add a filename to a folder.
+     * 
+     * @param   folder      the folder identifier
+     * @param   filename    the file name to add
+     * @return              true if it wasn't already in the folder, ignoring case
+     */
+    public boolean add(long folder, CharSequence filename) {
+        int foldedLength = foldedLength(filename);
+        long fingerprint = fingerprint(folder, filename);
+        long slot = find(fingerprint, folder, filename, foldedLength);
+        if (slot >= 0) {
+            return false;
+        }
+        store(-slot - 1, fingerprint, append(folder, filename, foldedLength));
+        if (++size * 3 > (mask + 1) * 2) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * @param   filename    the file name to look for
+     * @return              true if the filename is in the default folder (0), ignoring case
+     */
+    public boolean contains(CharSequence filename) {
+        return contains(0, filename);
+    }
+
+    /**
+     * @param   folder      the folder identifier
+     * @param   filename    the file name to look for
+     * @return              true if the filename is in the folder, ignoring case
+     */
+    public boolean contains(long folder, CharSequence filename) {
+        return find(fingerprint(folder, filename), folder, filename, foldedLength(filename)) >= 0;
+    }
+
+    /**
+     * @return              how many names have been added, across all folders
+     */
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void close() {
+        table.close();
+        keys.close();
+    }
+
+    /**
+     * FNV-1a over the case-folded code points, finalized with the MurmurHash3 mixer to spread it over the slots.
+     */
+    long fingerprint(long folder, CharSequence filename) {
+        long hash = (FNV_OFFSET ^ folder) * FNV_PRIME;
+        for (int i = 0; i < filename.length(); ) {
+            int codePoint = Character.codePointAt(filename, i);
+            i += Character.charCount(codePoint);
+            hash = (hash ^ fold(codePoint)) * FNV_PRIME;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * @return  the length of the case-folded name, in chars
+     */
+    private static int foldedLength(CharSequence filename) {
+        int length = 0;
+        for (int i = 0; i < filename.length(); ) {
+            int codePoint = Character.codePointAt(filename, i);
+            i += Character.charCount(codePoint);
+            length += Character.charCount(fold(codePoint));
+        }
+        return length;
+    }
+
+    private static int fold(int codePoint) {
+        // Same comparison performed by String.equalsIgnoreCase
+        return Character.toLowerCase(Character.toUpperCase(codePoint));
+    }
+
+    /**
+     * @return  the slot holding the name, or (-slot - 1) where the first empty slot is
+     */
+    private long find(long fingerprint, long folder, CharSequence filename, int foldedLength) {
+        for (long slot = fingerprint & mask; ; slot = (slot + 1) & mask) {
+            long key = table.getLong(slot * SLOT_BYTES + 8);
+            if (key == 0) {
+                return -slot - 1;
+            }
+            if (table.getLong(slot * SLOT_BYTES) == fingerprint && matches(key, folder, filename, foldedLength)) {
+                return slot;
+            }
+        }
+    }
+
+    private boolean matches(long key, long folder, CharSequence filename, int foldedLength) {
+        if (keys.getLong(key) != folder || keys.getInt(key + 8) != foldedLength) {
+            return false;
+        }
+        long position = key + 12;
+        for (int i = 0; i < filename.length(); ) {
+            int codePoint = Character.codePointAt(filename, i);
+            i += Character.charCount(codePoint);
+            int folded = fold(codePoint);
+            if (Character.isBmpCodePoint(folded)) {
+                if (keys.getChar(position) != (char) folded) {
+                    return false;
+                }
+                position += 2;
+            } else {
+                if (keys.getChar(position) != Character.highSurrogate(folded) 
+                        || keys.getChar(position + 2) != Character.lowSurrogate(folded)) {
+                    return false;
+                }
+                position += 4;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Log record, 8-bytes aligned: folder (long), case-folded length (int), case-folded chars.
+     */
+    private long append(long folder, CharSequence filename, int foldedLength) {
+        long key = keysEnd;
+        long end = key + 12 + 2L * foldedLength;
+        keys.ensureCapacity(end);
+        keys.putLong(key, folder);
+        keys.putInt(key + 8, foldedLength);
+        long position = key + 12;
+        for (int i = 0; i < filename.length(); ) {
+            int codePoint = Character.codePointAt(filename, i);
+            i += Character.charCount(codePoint);
+            int folded = fold(codePoint);
+            if (Character.isBmpCodePoint(folded)) {
+                keys.putChar(position, (char) folded);
+                position += 2;
+            } else {
+                keys.putChar(position, Character.highSurrogate(folded));
+                keys.putChar(position + 2, Character.lowSurrogate(folded));
+                position += 4;
+            }
+        }
+        keysEnd = (end + 7) & ~7L;
+        return key;
+    }
+
+    private void store(long slot, long fingerprint, long key) {
+        table.putLong(slot * SLOT_BYTES, fingerprint);
+        table.putLong(slot * SLOT_BYTES + 8, key);
+    }
+
+    private PagedBuffer newTable(long slots) {
+        long bytes = slots * SLOT_BYTES;
+        PagedBuffer buffer = new PagedBuffer(Math.min(Long.numberOfTrailingZeros(bytes), maxPageShift), maxPageShift, budget);
+        buffer.ensureCapacity(bytes);
+        mask = slots - 1;
+        return buffer;
+    }
+
+    private void grow() {
+        // Fingerprints are stored, so rehashing never reads the log
+        PagedBuffer old = table;
+        long oldSlots = mask + 1;
+        table = newTable(oldSlots * 2);
+        for (long slot = 0; slot < oldSlots; slot++) {
+            long key = old.getLong(slot * SLOT_BYTES + 8);
+            if (key != 0) {
+                long fingerprint = old.getLong(slot * SLOT_BYTES);
+                long target = fingerprint & mask;
+                while (table.getLong(target * SLOT_BYTES + 8) != 0) {
+                    target = (target + 1) & mask;
+                }
+                store(target, fingerprint, key);
+            }
+        }
+        old.close();
+    }
+}
@@ -89,6 +89,8 @@ public class FilenameSanitizer {
     final static String         FILENAME_EMPTY          = "Filename-parameter-was-empty-at-time-";
     final static String         EXTENSION_UNKNOWN       = ".unknown";   
     final static String         RESERVED_CHARS          = "<>:\"/\\|?*";
+    final static String         ERROR_EMPTY             = "Input String has zero non-whitespace characters";
+    final static String         ERROR_TOO_LONG          = "Input String is too long, " + MAX_LENGTH + " chars is the maximum allowed.";
     final static String[]       RESERVED_NAMES          = {"CON", "PRN", "AUX", "NUL", "COM1", "COM2", 
                                                            "COM3", "COM4", "COM5", "COM6", "COM7", "COM8", 
                                                            "COM9", "LPT1", "LPT2", "LPT3", "LPT4", "LPT5", 
@@ -130,6 +132,33 @@ public class FilenameSanitizer {
     public static String sanitizePrettily(String filename) {
         return sanitization(filename,true,true);
     }
+
+    /**
+     * Same rules of {@link #sanitize(String)}, as a {@link TransformPipeline} stage.
+     * 
+     * @return              a new stage
+     */
+    public static TransformPipeline.Stage sanitizeStage() {
+        return new SanitizationStage(false,false);
+    }
+
+    /**
+     * Same rules of {@link #sanitizeSafely(String)}, as a {@link TransformPipeline} stage.
+     * 
+     * @return              a new stage
+     */
+    public static TransformPipeline.Stage sanitizeSafelyStage() {
+        return new SanitizationStage(true,false);
+    }
+
+    /**
+     * Same rules of {@link #sanitizePrettily(String)}, as a {@link TransformPipeline} stage.
+     * 
+     * @return              a new stage
+     */
+    public static TransformPipeline.Stage sanitizePrettilyStage() {
+        return new SanitizationStage(true,true);
+    }
     
 
     
@@ -182,7 +211,8 @@ public class FilenameSanitizer {
     }
     
     private static String makeSafe(String filename) {
-        return handleMaxLength(handleEmpty(handleNull(filename)));
+        // Emptiness checked after shortening too, since a long name could start with 256 whitespaces
+        return handleEmpty(handleMaxLength(handleEmpty(handleNull(filename))));
     }
     
     private static String makePretty(String filename) {
@@ -203,19 +233,27 @@ public class FilenameSanitizer {
 
     private static String handleNull(String filename) {
         if (filename == null) {
-            LOG.warn("Filename was null, and a safe, unique filename has been generated");
-            return FILENAME_NULL + System.currentTimeMillis() + "-rnd-" + new Random(System.nanoTime()).nextLong() + EXTENSION_UNKNOWN;
+            return generateForNull();
         }
         return filename;
     }
     
     private static String handleEmpty(String filename) {
         if (filename.trim().isEmpty()) {
-            LOG.warn("Filename was empty, and a safe, unique filename has been generated"); 
-            return FILENAME_EMPTY + System.currentTimeMillis() + "-rnd-" + new Random(System.nanoTime()).nextLong() + EXTENSION_UNKNOWN;
+            return generateForEmpty();
         }
         return filename;
     }
+
+    private static String generateForNull() {
+        LOG.warn("Filename was null, and a safe, unique filename has been generated");
+        return FILENAME_NULL + System.currentTimeMillis() + "-rnd-" + new Random(System.nanoTime()).nextLong() + EXTENSION_UNKNOWN;
+    }
+
+    private static String generateForEmpty() {
+        LOG.warn("Filename was empty, and a safe, unique filename has been generated"); 
+        return FILENAME_EMPTY + System.currentTimeMillis() + "-rnd-" + new Random(System.nanoTime()).nextLong() + EXTENSION_UNKNOWN;
+    }
     
     private static String handleMaxLength(String filename) {
         if (filename.length()>MAX_LENGTH) {
@@ -228,14 +266,227 @@ public class FilenameSanitizer {
 
     private static void throwErrorIfUnsafe(String filename) {
         if (filename.trim().isEmpty()) {
-            String error = "Input String has zero non-whitespace characters";
-            LOG.error(error);
-            throw new IllegalArgumentException(error);
+            throw unsafe(ERROR_EMPTY);
         }
         if (filename.length()>256) {
-            String error = "Input String is too long, " + MAX_LENGTH + " chars is the maximum allowed.";
-            LOG.error(error);
-            throw new IllegalArgumentException(error);
+            throw unsafe(ERROR_TOO_LONG);
+        }
+    }
+
+    private static IllegalArgumentException unsafe(String error) {
+        LOG.error(error);
+        return new IllegalArgumentException(error);
+    }
+
+    private static boolean isReservedChar(char c) {
+        return c < ' ' || RESERVED_CHARS.indexOf(c) >= 0;
+    }
+
+    /**
+     * Streaming version of {@link FilenameSanitizer#sanitization(String, boolean, boolean)}.
+     * <p>
+     * Characters which could end up being trimmed or stripped are held back until the next meaningful character arrives,
+     * and the output is held back for as long as it could still be a Windows reserved name, which needs the prefix token.
+     */
+    private static class SanitizationStage implements TransformPipeline.Stage {
+        private final static int    LEADING_STRIP   = 0;    // pretty: dropping leading hyphens, dots and spaces
+        private final static int    LEADING_TRIM    = 1;    // pretty: dropping leading whitespaces
+        private final static int    BODY            = 2;
+
+        private final boolean       safely;
+        private final boolean       prettily;
+        private final StringBuilder pending         = new StringBuilder();
+        private final StringBuilder name            = new StringBuilder();
+        private int                 length;
+        private boolean             blank;
+        private int                 leading;
+        private int                 emitted;
+        private boolean             holdingName;
+        private int                 nameDot;
+
+        private SanitizationStage(boolean safely, boolean prettily) {
+            this.safely = safely;
+            this.prettily = prettily;
+        }
+
+        @Override
+        public void start() {
+            pending.setLength(0);
+            name.setLength(0);
+            length = 0;
+            blank = true;
+            leading = LEADING_STRIP;
+            emitted = 0;
+            holdingName = true;
+            nameDot = -1;
+        }
+
+        @Override
+        public CharSequence onNull() {
+            if (!safely) {
+                throw new NullPointerException("filename");
+            }
+            return generateForNull();
+        }
+
+        @Override
+        public void accept(char c, TransformPipeline.Emitter next) {
+            length++;
+            if (c > ' ') {
+                blank = false;
+            }
+            if (length > MAX_LENGTH) {
+                if (!safely && !blank) {
+                    throw unsafe(ERROR_TOO_LONG);
+                }
+                // Safe sanitization truncates: the rest of the input only matters to tell if it was whitespaces-only
+                return;
+            }
+            if (prettily) {
+                acceptPrettily(c, next);
+            } else {
+                acceptStandard(c, next);
+            }
+        }
+
+        private void acceptStandard(char c, TransformPipeline.Emitter next) {
+            // Until a non-whitespace char shows up, the input could still turn out to be empty
+            if (blank || c == ' ') {
+                pending.append(c);
+                return;
+            }
+            for (int i = 0; i < pending.length(); i++) {
+                // Control codes are replaced rather than trimmed, only spaces before them are leading
+                if (emitted > 0 || pending.charAt(i) != ' ') {
+                    body(pending.charAt(i), next);
+                }
+            }
+            pending.setLength(0);
+            body(c, next);
+        }
+
+        private void acceptPrettily(char c, TransformPipeline.Emitter next) {
+            switch (leading) {
+            case LEADING_STRIP:
+                if (c == '-' || c == '.' || c == ' ') {
+                    return;
+                }
+                leading = LEADING_TRIM;
+                // fall through
+            case LEADING_TRIM:
+                if (c <= ' ') {
+                    return;
+                }
+                leading = BODY;
+                // fall through
+            default:
+                // Trailing dots and spaces are stripped first, then the whitespaces before them are trimmed
+                if (c == '.' || c == ' ') {
+                    pending.append(c);
+                    return;
+                }
+                if (c < ' ') {
+                    int lastDot = pending.lastIndexOf(".");
+                    for (int i = 0; i <= lastDot; i++) {
+                        body(pending.charAt(i), next);
+                    }
+                    pending.delete(0, lastDot + 1).append(c);
+                    return;
+                }
+                for (int i = 0; i < pending.length(); i++) {
+                    body(pending.charAt(i), next);
+                }
+                pending.setLength(0);
+                body(c, next);
+            }
+        }
+
+        private void body(char c, TransformPipeline.Emitter next) {
+            char sanitized = isReservedChar(c) ? SANITIZATION_TOKEN : c;
+            emitted++;
+            if (!holdingName) {
+                next.emit(sanitized);
+                return;
+            }
+            name.append(sanitized);
+            if (!couldBeReservedName(sanitized)) {
+                holdingName = false;
+                TransformPipeline.emitAll(name, next);
+            }
+        }
+
+        private boolean couldBeReservedName(char last) {
+            int position = name.length() - 1;
+            if (nameDot >= 0) {
+                // Only the last extension is stripped out before comparing
+                return last != '.';
+            }
+            if (last == '.') {
+                nameDot = position;
+                return position > 0 && isReservedName(position);
+            }
+            for (String reserved : RESERVED_NAMES) {
+                if (position < reserved.length() && equalsIgnoreCase(reserved.charAt(position), last) && startsWith(reserved, position)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean startsWith(String reserved, int length) {
+            for (int i = 0; i < length; i++) {
+                if (!equalsIgnoreCase(reserved.charAt(i), name.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isReservedName(int length) {
+            for (String reserved : RESERVED_NAMES) {
+                if (reserved.length() == length && startsWith(reserved, length)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean equalsIgnoreCase(char a, char b) {
+            // Same comparison performed by String.equalsIgnoreCase
+            if (a == b) {
+                return true;
+            }
+            char upperA = Character.toUpperCase(a);
+            char upperB = Character.toUpperCase(b);
+            return upperA == upperB || Character.toLowerCase(upperA) == Character.toLowerCase(upperB);
+        }
+
+        @Override
+        public void finish(TransformPipeline.Emitter next) {
+            if (blank) {
+                if (!safely) {
+                    throw unsafe(ERROR_EMPTY);
+                }
+                TransformPipeline.emitAll(generateForEmpty(), next);
+                return;
+            }
+            if (length > MAX_LENGTH) {
+                if (!safely) {
+                    throw unsafe(ERROR_TOO_LONG);
+                }
+                LOG.warn("Filename proposed was too long ({} chars against {} of maximum length), and it has been shortened",length, MAX_LENGTH);
+            }
+            // Whatever is still pending is trailing, hence trimmed or stripped
+            if (emitted == 0) {
+                TransformPipeline.emitAll(generateForEmpty(), next);
+                return;
+            }
+            if (holdingName) {
+                if (nameDot >= 0 || isReservedName(name.length())) {
+                    next.emit(SANITIZATION_TOKEN);
+                }
+                TransformPipeline.emitAll(name, next);
+            }
         }
     }
 
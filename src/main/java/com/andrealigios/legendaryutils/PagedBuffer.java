@@ -0,0 +1,206 @@
+/* MIT License
+
+Copyright (c) 2018 Andrea Ligios
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+package com.andrealigios.legendaryutils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Off-heap storage addressed by a {@code long} position, split in pages since a single ByteBuffer can't exceed 2GB.
+ * <p>
+ * Pages are direct ByteBuffers for as long as the shared {@link Budget} allows it, then memory-mapped regions of a temporary file,
+ * so that the Operating System can page them out when the storage is larger than the available RAM.
+ * The file is mapped in large chunks, each one sliced into pages, to keep the number of mappings low 
+ * (Linux allows 65530 per process by default).
+ * <p>
+ * Pages are sized as a power of two, hence every aligned primitive lies entirely in one page.
+ */
+final class PagedBuffer implements Closeable {
+
+    private final static Logger LOG = LoggerFactory.getLogger(PagedBuffer.class);
+
+    private final int           pageShift;
+    private final int           pageSize;
+    private final long          pageMask;
+    private final long          chunkSize;
+    private final Budget        budget;
+    private ByteBuffer[]        pages       = new ByteBuffer[16];
+    private int                 pageCount;
+    private long                directBytes;
+    private Path                file;
+    private FileChannel         channel;
+    private ByteBuffer          chunk;
+    private long                chunkStart;
+
+    /**
+     * @param   pageShift   log2 of the page size
+     * @param   chunkShift  log2 of the size of the regions mapped from the spill file, raised to the page size if lower
+     */
+    PagedBuffer(int pageShift, int chunkShift, Budget budget) {
+        this.pageShift  = pageShift;
+        this.pageSize   = 1 << pageShift;
+        this.pageMask   = pageSize - 1;
+        this.chunkSize  = 1L << Math.max(pageShift, chunkShift);
+        this.budget     = budget;
+    }
+
+    /**
+     * Make sure that every position lower than the provided one is backed by a page. New pages are zeroed.
+     */
+    void ensureCapacity(long bytes) {
+        long needed = (bytes + pageMask) >>> pageShift;
+        if (needed <= pageCount) {
+            return;
+        }
+        if (needed > Integer.MAX_VALUE - 8) {
+            String error = "Off-heap storage can't exceed " + (Integer.MAX_VALUE - 8) + " pages of " + pageSize + " bytes";
+            LOG.error(error);
+            throw new IllegalStateException(error);
+        }
+        if (needed > pages.length) {
+            // Geometric growth, since the storage can grow page by page up to millions of them
+            pages = Arrays.copyOf(pages, (int) Math.max(needed, Math.min(pages.length * 2L, Integer.MAX_VALUE - 8)));
+        }
+        while (pageCount < needed) {
+            pages[pageCount] = allocate(pageCount).order(ByteOrder.nativeOrder());
+            pageCount++;
+        }
+    }
+
+    long getLong(long position) {
+        return pages[(int) (position >>> pageShift)].getLong((int) (position & pageMask));
+    }
+
+    void putLong(long position, long value) {
+        pages[(int) (position >>> pageShift)].putLong((int) (position & pageMask), value);
+    }
+
+    int getInt(long position) {
+        return pages[(int) (position >>> pageShift)].getInt((int) (position & pageMask));
+    }
+
+    void putInt(long position, int value) {
+        pages[(int) (position >>> pageShift)].putInt((int) (position & pageMask), value);
+    }
+
+    char getChar(long position) {
+        return pages[(int) (position >>> pageShift)].getChar((int) (position & pageMask));
+    }
+
+    void putChar(long position, char value) {
+        pages[(int) (position >>> pageShift)].putChar((int) (position & pageMask), value);
+    }
+
+    /**
+     * Give the direct memory back to the budget and delete the spill file, if any.
+     * Direct buffers are then reclaimed by the Garbage Collector, and mapped pages once they're unreachable.
+     */
+    @Override
+    public void close() {
+        pages = new ByteBuffer[0];
+        pageCount = 0;
+        chunk = null;
+        budget.release(directBytes);
+        directBytes = 0;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOG.warn("Unable to close spill file {}", file, e);
+            }
+            channel = null;
+        }
+    }
+
+    private ByteBuffer allocate(int index) {
+        if (budget.reserve(pageSize)) {
+            directBytes += pageSize;
+            return ByteBuffer.allocateDirect(pageSize);
+        }
+        if (budget.spillDirectory == null) {
+            String error = "Off-heap memory budget exhausted and no spill directory specified";
+            LOG.error(error);
+            throw new IllegalStateException(error);
+        }
+        try {
+            if (channel == null) {
+                file = Files.createTempFile(budget.spillDirectory, "legendary-utils-", ".spill");
+                channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+                LOG.info("Off-heap memory budget exhausted, spilling to {}", file);
+            }
+            long position = (long) index << pageShift;
+            long start = position & -chunkSize;
+            if (chunk == null || chunkStart != start) {
+                // Mapping beyond the end of the file grows it sparsely: the new region reads as zeros
+                chunk = channel.map(FileChannel.MapMode.READ_WRITE, start, chunkSize);
+                chunkStart = start;
+            }
+            // Buffer methods, since ByteBuffer overrides them only from Java 9
+            Buffer page = chunk.duplicate();
+            page.position((int) (position - start));
+            page.limit((int) (position - start) + pageSize);
+            return ((ByteBuffer) page).slice();
+        } catch (IOException e) {
+            LOG.error("Unable to spill to {}", budget.spillDirectory, e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Direct memory shared by the PagedBuffers of a same owner, and where to spill once it's over.
+     */
+    static final class Budget {
+        private final Path  spillDirectory;
+        private long        directBytesLeft;
+
+        Budget(long directBytes, Path spillDirectory) {
+            this.directBytesLeft = directBytes;
+            this.spillDirectory  = spillDirectory;
+        }
+
+        private boolean reserve(long bytes) {
+            if (bytes > directBytesLeft) {
+                return false;
+            }
+            directBytesLeft -= bytes;
+            return true;
+        }
+
+        private void release(long bytes) {
+            directBytesLeft += bytes;
+        }
+    }
+}
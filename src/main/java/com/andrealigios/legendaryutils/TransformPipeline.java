@@ -0,0 +1,199 @@
+/* MIT License
+
+Copyright (c) 2018 Andrea Ligios
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+package com.andrealigios.legendaryutils;
+
+import java.util.Objects;
+
+/**
+ *
+ * @author Andrea Ligios
+ * @version 1.0.0
+ * @see <a href="https://github.com/andrea-ligios/legendary-utils">Legendary Utils</a>
+ *
+ * TransformPipeline fuses a chain of character transformations into a single traversal of the input.
+ * <p>
+ * Every {@link Stage} declares its rules one character at a time: it receives a character and pushes zero or more characters
+ * to the next stage through an {@link Emitter}. Stages needing context (a look-behind, a look-ahead, a trailing run to be trimmed)
+ * keep it in their own small state, so the input is read only once and no intermediate String is ever built.
+ * The last stage writes straight into a reusable buffer.
+ * <p>
+ * The existing utilities are available as stages:
+ * <ul>
+ * <li> {@link WordsCapitalizer#capitalizeEveryWordStage(java.util.List, java.util.Locale)}
+ * <li> {@link FilenameSanitizer#sanitizeStage()}
+ * <li> {@link FilenameSanitizer#sanitizeSafelyStage()}
+ * <li> {@link FilenameSanitizer#sanitizePrettilyStage()}
+ * </ul>
+ * so that, for example,
+ * <pre>
+ * TransformPipeline.of(WordsCapitalizer.capitalizeEveryWordStage(), FilenameSanitizer.sanitizePrettilyStage()).apply(name)
+ * </pre>
+ * returns the same value of {@code FilenameSanitizer.sanitizePrettily(WordsCapitalizer.capitalizeEveryWord(name))}.
+ * <p>
+ * Stages are stateful, hence a pipeline (and the stages it has been built with) must not be shared between threads
+ * nor between pipelines: create one pipeline per thread and reuse it for as many inputs as needed.
+ *
+ */
+public class TransformPipeline {
+
+    private final Stage[]       stages;
+    private final Emitter[]     emitters;
+    private final Emitter       head;
+    private final StringBuilder buffer = new StringBuilder();
+    private StringBuilder       target;
+
+    private TransformPipeline(Stage[] stages) {
+        this.stages   = stages;
+        this.emitters = new Emitter[stages.length];
+
+        Emitter downstream = c -> target.append(c);
+        for (int i = stages.length - 1; i >= 0; i--) {
+            emitters[i] = downstream;
+            downstream  = forward(stages[i], downstream);
+        }
+        this.head = downstream;
+    }
+
+    /**
+     * Build a pipeline applying the stages in the order they're provided.
+     *
+     * @param   stages  the stages to fuse
+     * @return          the fused pipeline
+     * @throws          NullPointerException if any stage is null
+     */
+    public static TransformPipeline of(Stage... stages) {
+        Stage[] copy = stages.clone();
+        for (Stage stage : copy) {
+            Objects.requireNonNull(stage, "stage");
+        }
+        return new TransformPipeline(copy);
+    }
+
+    /**
+     * Run the input through every stage in a single pass.
+     *
+     * @param   input   the text to transform
+     * @return          the transformed text
+     */
+    public String apply(CharSequence input) {
+        buffer.setLength(0);
+        return applyTo(input, buffer).toString();
+    }
+
+    /**
+     * Run the input through every stage in a single pass, appending the result to the provided builder
+     * instead of creating a new String.
+     * If a stage throws an exception, whatever was already appended to the builder is left there.
+     *
+     * @param   input   the text to transform
+     * @param   output  the builder receiving the transformed text
+     * @return          the output builder
+     */
+    public StringBuilder applyTo(CharSequence input, StringBuilder output) {
+        target = output;
+        try {
+            for (Stage stage : stages) {
+                stage.start();
+            }
+
+            int first = 0;
+            if (input == null) {
+                // The first stage decides what a null input means; its replacement feeds the following stages
+                if (stages.length == 0) {
+                    throw new NullPointerException("input");
+                }
+                emitAll(stages[0].onNull(), emitters[0]);
+                first = 1;
+            } else {
+                for (int i = 0; i < input.length(); i++) {
+                    head.emit(input.charAt(i));
+                }
+            }
+
+            for (int i = first; i < stages.length; i++) {
+                stages[i].finish(emitters[i]);
+            }
+            return output;
+        } finally {
+            target = null;
+        }
+    }
+
+    private static Emitter forward(Stage stage, Emitter next) {
+        return c -> stage.accept(c, next);
+    }
+
+    static void emitAll(CharSequence chars, Emitter next) {
+        for (int i = 0; i < chars.length(); i++) {
+            next.emit(chars.charAt(i));
+        }
+    }
+
+    /**
+     * Receives the characters produced by a stage.
+     */
+    @FunctionalInterface
+    public static interface Emitter {
+        void emit(char c);
+    }
+
+    /**
+     * A single step of a pipeline, expressed as a per-character rule.
+     */
+    public static interface Stage {
+
+        /**
+         * Reset any state left by the previous input.
+         */
+        default void start() {
+        }
+
+        /**
+         * Handle the next input character, emitting zero or more characters to the next stage.
+         *
+         * @param   c       the input character
+         * @param   next    where to emit the output
+         */
+        void accept(char c, Emitter next);
+
+        /**
+         * Input is over: emit anything that was held back.
+         *
+         * @param   next    where to emit the output
+         */
+        default void finish(Emitter next) {
+        }
+
+        /**
+         * Invoked instead of {@link #accept(char, Emitter)} and {@link #finish(Emitter)} when the pipeline input is null
+         * and this is the first stage.
+         *
+         * @return          the whole output of this stage for a null input
+         * @throws          NullPointerException unless the stage is able to handle a null input
+         */
+        default CharSequence onNull() {
+            throw new NullPointerException("input");
+        }
+    }
+}
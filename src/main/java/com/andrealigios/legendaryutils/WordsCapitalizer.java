@@ -23,7 +23,10 @@ SOFTWARE.
 
 package com.andrealigios.legendaryutils;
 
+import java.text.BreakIterator;
+import java.text.Normalizer;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
@@ -93,6 +96,28 @@ public class WordsCapitalizer {
         return String.valueOf(chars);
     }
 
+    public static TransformPipeline.Stage capitalizeEveryWordStage() {
+        return capitalizeEveryWordStage(null,null);
+    }
+
+    public static TransformPipeline.Stage capitalizeEveryWordStage(Locale locale) {
+        return capitalizeEveryWordStage(null,locale);
+    }
+
+    /**
+     * Same rules of {@link #capitalizeEveryWord(String, List, Locale)}, as a {@link TransformPipeline} stage.
+     * <p>
+     * Lowering applies the same special and contextual casing of {@link String#toLowerCase(Locale)}: the Greek final sigma, 
+     * and the Turkish, Azeri and Lithuanian rules on dotted and dotless 'i'. Characters whose lowering depends on the following ones 
+     * are held back until those arrive; a capital sigma holds back the rest of the input, since it depends on word boundaries.
+     */
+    public static TransformPipeline.Stage capitalizeEveryWordStage(List<Delimiter> delimiters, Locale locale) {
+        if (delimiters == null || delimiters.size() == 0) {
+            delimiters = getDefaultDelimiters();
+        }
+        return new CapitalizationStage(delimiters.toArray(new Delimiter[0]), locale);
+    }
+
     private static boolean isSurrogate(char chr){
         // Check if the current character is part of an UTF-16 Surrogate Pair.  
         // Note: not validating the pair, just used to bypass (any found part of) it.
@@ -106,6 +131,321 @@ public class WordsCapitalizer {
         return delimiters;
     } 
 
+    private static class CapitalizationStage implements TransformPipeline.Stage {
+        private final Delimiter[] delimiters;
+        private final Locale fixedLocale;
+        private final StringBuilder source = new StringBuilder();
+        private Locale locale;
+        private boolean turkic;
+        private boolean lithuanian;
+        private int lowered;
+        private String text;
+        private BreakIterator words;
+        private Locale wordsLocale;
+        private boolean hasPending;
+        private char pending;
+        private boolean capitalizePending;
+
+        private CapitalizationStage(Delimiter[] delimiters, Locale locale) {
+            this.delimiters = delimiters;
+            this.fixedLocale = locale;
+        }
+
+        @Override
+        public void start() {
+            // Like String.toLowerCase(), a missing Locale means the default one at the time of the call
+            locale = (fixedLocale!=null) ? fixedLocale : Locale.getDefault();
+            String language = locale.getLanguage();
+            turkic = language.equals("tr") || language.equals("az");
+            lithuanian = language.equals("lt");
+            source.setLength(0);
+            lowered = 0;
+            text = null;
+            hasPending = false;
+        }
+
+        @Override
+        public void accept(char c, TransformPipeline.Emitter next) {
+            // The source is kept because some lowerings depend on the characters around
+            source.append(c);
+            lowerAvailable(false, next);
+        }
+
+        @Override
+        public void finish(TransformPipeline.Emitter next) {
+            lowerAvailable(true, next);
+            if (hasPending) {
+                emitPending(next);
+                hasPending = false;
+            }
+        }
+
+        private void lowerAvailable(boolean end, TransformPipeline.Emitter next) {
+            while (lowered < source.length()) {
+                if (!end && lowered == source.length() - 1 && Character.isHighSurrogate(source.charAt(lowered))) {
+                    return;
+                }
+                int codePoint = source.codePointAt(lowered);
+                if (!lower(codePoint, lowered, end, next)) {
+                    return;
+                }
+                lowered += Character.charCount(codePoint);
+            }
+        }
+
+        /**
+         * Same mappings of String.toLowerCase(Locale), including the conditional ones of java.lang.ConditionalSpecialCasing.
+         * 
+         * @return  false if the mapping depends on characters not received yet
+         */
+        private boolean lower(int codePoint, int index, boolean end, TransformPipeline.Emitter next) {
+            if (codePoint == '\u03A3') {
+                // GREEK CAPITAL LETTER SIGMA: final sigma when ending a word, known only once the input is over
+                if (!end) {
+                    return false;
+                }
+                capitalize(isFinalCased(index) ? '\u03C2' : '\u03C3', next);
+                return true;
+            }
+            if (codePoint == '\u0130') {
+                // LATIN CAPITAL LETTER I WITH DOT ABOVE: the dot survives as a combining character, but in Turkish and Azeri
+                capitalize('i', next);
+                if (!turkic) {
+                    capitalize('\u0307', next);
+                }
+                return true;
+            }
+            if (turkic) {
+                if (codePoint == 'I') {
+                    // Dotless, unless followed by a COMBINING DOT ABOVE, which is then dropped
+                    Boolean beforeDot = isBeforeDot(index, end);
+                    if (beforeDot == null) {
+                        return false;
+                    }
+                    capitalize(beforeDot ? 'i' : '\u0131', next);
+                    return true;
+                }
+                if (codePoint == '\u0307' && isAfterI(index)) {
+                    return true;
+                }
+            } else if (lithuanian) {
+                switch (codePoint) {
+                case 'I':
+                case 'J':
+                case '\u012E':
+                    // The dot is kept explicitly when other accents are placed above
+                    Boolean moreAbove = isMoreAbove(index, end);
+                    if (moreAbove == null) {
+                        return false;
+                    }
+                    capitalize((char) Character.toLowerCase(codePoint), next);
+                    if (moreAbove) {
+                        capitalize('\u0307', next);
+                    }
+                    return true;
+                case '\u00CC':
+                case '\u00CD':
+                case '\u0128':
+                    capitalize('i', next);
+                    capitalize('\u0307', next);
+                    capitalize(codePoint == '\u00CC' ? '\u0300' : codePoint == '\u00CD' ? '\u0301' : '\u0303', next);
+                    return true;
+                default:
+                }
+            }
+            int lowerCase = Character.toLowerCase(codePoint);
+            if (Character.isBmpCodePoint(lowerCase)) {
+                capitalize((char) lowerCase, next);
+            } else {
+                capitalize(Character.highSurrogate(lowerCase), next);
+                capitalize(Character.lowSurrogate(lowerCase), next);
+            }
+            return true;
+        }
+
+        /**
+         * Before_Dot: followed by a COMBINING DOT ABOVE, with only non-starters other than the ABOVE ones in between.
+         * 
+         * @return  null if the characters received so far are not enough to tell
+         */
+        private Boolean isBeforeDot(int index, boolean end) {
+            for (int i = index + 1; i < source.length(); ) {
+                if (!end && i == source.length() - 1 && Character.isHighSurrogate(source.charAt(i))) {
+                    return null;
+                }
+                int codePoint = source.codePointAt(i);
+                if (codePoint == '\u0307') {
+                    return Boolean.TRUE;
+                }
+                if (CombiningClass.isStarter(codePoint) || CombiningClass.isAbove(codePoint)) {
+                    return Boolean.FALSE;
+                }
+                i += Character.charCount(codePoint);
+            }
+            return end ? Boolean.FALSE : null;
+        }
+
+        /**
+         * More_Above: followed by an ABOVE character, with only non-starters in between.
+         * 
+         * @return  null if the characters received so far are not enough to tell
+         */
+        private Boolean isMoreAbove(int index, boolean end) {
+            for (int i = index + Character.charCount(source.codePointAt(index)); i < source.length(); ) {
+                if (!end && i == source.length() - 1 && Character.isHighSurrogate(source.charAt(i))) {
+                    return null;
+                }
+                int codePoint = source.codePointAt(i);
+                if (CombiningClass.isAbove(codePoint)) {
+                    return Boolean.TRUE;
+                }
+                if (CombiningClass.isStarter(codePoint)) {
+                    return Boolean.FALSE;
+                }
+                i += Character.charCount(codePoint);
+            }
+            return end ? Boolean.FALSE : null;
+        }
+
+        /**
+         * After_I: preceded by an uppercase I, with only non-starters other than the ABOVE ones in between.
+         */
+        private boolean isAfterI(int index) {
+            for (int i = index; i > 0; ) {
+                int codePoint = source.codePointBefore(i);
+                if (codePoint == 'I') {
+                    return true;
+                }
+                if (CombiningClass.isStarter(codePoint) || CombiningClass.isAbove(codePoint)) {
+                    return false;
+                }
+                i -= Character.charCount(codePoint);
+            }
+            return false;
+        }
+
+        /**
+         * Final_Cased, evaluated on the same word boundaries used by String.toLowerCase(Locale): 
+         * a cased letter before the sigma, and none after it, within its word.
+         */
+        private boolean isFinalCased(int index) {
+            if (text == null) {
+                text = source.toString();
+                if (words == null || !locale.equals(wordsLocale)) {
+                    words = BreakIterator.getWordInstance(locale);
+                    wordsLocale = locale;
+                }
+            }
+            // Reset for every sigma, like ConditionalSpecialCasing: previous isBoundary() calls can change later answers
+            words.setText(text);
+            for (int i = index; i > 0 && !words.isBoundary(i); ) {
+                int before = text.codePointBefore(i);
+                if (isCased(before)) {
+                    for (int j = index + 1; j < text.length() && !words.isBoundary(j); ) {
+                        int after = text.codePointAt(j);
+                        if (isCased(after)) {
+                            return false;
+                        }
+                        j += Character.charCount(after);
+                    }
+                    return true;
+                }
+                i -= Character.charCount(before);
+            }
+            return false;
+        }
+
+        private static boolean isCased(int codePoint) {
+            // Uppercase, lowercase or titlecase letters, plus the Other_Lowercase and Other_Uppercase ranges
+            int type = Character.getType(codePoint);
+            return type == Character.LOWERCASE_LETTER || type == Character.UPPERCASE_LETTER || type == Character.TITLECASE_LETTER
+                    || (codePoint >= 0x02B0 && codePoint <= 0x02B8) || (codePoint >= 0x02C0 && codePoint <= 0x02C1)
+                    || (codePoint >= 0x02E0 && codePoint <= 0x02E4) || codePoint == 0x0345 || codePoint == 0x037A
+                    || (codePoint >= 0x1D2C && codePoint <= 0x1D61) || (codePoint >= 0x2160 && codePoint <= 0x217F)
+                    || (codePoint >= 0x24B6 && codePoint <= 0x24E9);
+        }
+
+        private void capitalize(char c, TransformPipeline.Emitter next) {
+            // Every character is held back until the next one is known, since a delimiter may capitalize the letter before it
+            Delimiter delimiter = findDelimiter(c);
+            if (hasPending) {
+                if (delimiter != null && delimiter.capitalizeBefore()) {
+                    capitalizePending = true;
+                }
+                emitPending(next);
+                Delimiter previous = findDelimiter(pending);
+                capitalizePending = previous != null && previous.capitalizeAfter();
+            } else {
+                // First character ALWAYS capitalized, if it is a Letter.
+                capitalizePending = true;
+            }
+            pending = c;
+            hasPending = true;
+        }
+
+        private void emitPending(TransformPipeline.Emitter next) {
+            if (capitalizePending && Character.isLetter(pending) && !isSurrogate(pending)) {
+                next.emit(Character.toUpperCase(pending));
+            } else {
+                next.emit(pending);
+            }
+        }
+
+        private Delimiter findDelimiter(char chr) {
+            if (isSurrogate(chr) || Character.isLetter(chr)) {
+                return null;
+            }
+            for (Delimiter delimiter : delimiters) {
+                if (delimiter.getDelimiter()==chr) {
+                    return delimiter;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Canonical Combining Classes needed by the contextual casing rules, which have no public API: 
+     * they're inferred once from the canonical reordering performed by the NFD normalization.
+     */
+    private static class CombiningClass {
+        private final static BitSet NON_STARTERS = new BitSet();
+        private final static BitSet ABOVE = new BitSet();
+
+        static {
+            for (int codePoint = 0; codePoint <= Character.MAX_CODE_POINT; codePoint++) {
+                int type = Character.getType(codePoint);
+                // Only marks have a combining class other than zero
+                if (type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK || type == Character.ENCLOSING_MARK) {
+                    // Marks are reordered after a preceding mark with a higher class: U+0345 is 240, U+0315 is 232, U+0300 is 230
+                    if (codePoint == 0x0345 || movesBefore("\u0345", codePoint)) {
+                        NON_STARTERS.set(codePoint);
+                    }
+                    if (movesBefore("\u0315", codePoint) && !movesBefore("\u0300", codePoint)) {
+                        ABOVE.set(codePoint);
+                    }
+                }
+            }
+            // Tibetan vowel signs of class zero, decomposing to non-starters
+            NON_STARTERS.clear(0x0F73);
+            NON_STARTERS.clear(0x0F75);
+            NON_STARTERS.clear(0x0F81);
+        }
+
+        private static boolean movesBefore(String mark, int codePoint) {
+            String decomposed = Normalizer.normalize(new String(Character.toChars(codePoint)), Normalizer.Form.NFD);
+            return !Normalizer.normalize(mark + decomposed, Normalizer.Form.NFD).equals(mark + decomposed);
+        }
+
+        static boolean isStarter(int codePoint) {
+            return !NON_STARTERS.get(codePoint);
+        }
+
+        static boolean isAbove(int codePoint) {
+            return ABOVE.get(codePoint);
+        }
+    }
+
     public static class Delimiter {
         private Behavior behavior;
         private char delimiter;
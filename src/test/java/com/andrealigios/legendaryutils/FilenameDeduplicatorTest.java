@@ -0,0 +1,137 @@
+/* MIT License
+
+Copyright (c) 2018 Andrea Ligios
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+package com.andrealigios.legendaryutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+/**
+ * Unit test for FilenameDeduplicator.
+ */
+class FilenameDeduplicatorTest {
+
+    @Test
+    void givenSameNameWithDifferentCase_whenAdded_ThenDuplicateIsDetected() {
+        try (FilenameDeduplicator deduplicator = FilenameDeduplicator.inMemory(10)) {
+            assertTrue(deduplicator.add("Quarterly Report.txt"));
+            assertFalse(deduplicator.add("QUARTERLY REPORT.TXT"));
+            assertFalse(deduplicator.add(new StringBuilder("quarterly report.txt")));
+            assertTrue(deduplicator.contains("quarterly REPORT.txt"));
+            assertFalse(deduplicator.contains("quarterly report.txt.bak"));
+            assertEquals(1, deduplicator.size());
+        }
+    }
+
+    @Test
+    void givenUnicodeNames_whenAdded_ThenCaseIsFoldedLikeEqualsIgnoreCase() {
+        try (FilenameDeduplicator deduplicator = FilenameDeduplicator.inMemory(10)) {
+            assertTrue(deduplicator.add("Это российский документ.txt"));
+            assertFalse(deduplicator.add("ЭТО РОССИЙСКИЙ ДОКУМЕНТ.TXT"));
+            assertTrue(deduplicator.add("Surrogate Pair (𐐂).txt"));
+            assertFalse(deduplicator.add("surrogate pair (𐐪).txt"));
+            assertTrue(deduplicator.add("这是一个中文文档.txt"));
+            assertFalse(deduplicator.add("这是一个中文文档.TXT"));
+            assertEquals(3, deduplicator.size());
+        }
+    }
+
+    @Test
+    void givenSameNameInDifferentFolders_whenAdded_ThenNotDuplicate() {
+        try (FilenameDeduplicator deduplicator = FilenameDeduplicator.inMemory(10)) {
+            assertTrue(deduplicator.add(1, "readme.md"));
+            assertTrue(deduplicator.add(2, "README.md"));
+            assertFalse(deduplicator.add(2, "Readme.MD"));
+            assertFalse(deduplicator.contains("readme.md"));
+            assertEquals(2, deduplicator.size());
+        }
+    }
+
+    @Test
+    void givenCollidingFingerprints_whenAdded_ThenNamesAreVerifiedExactly() {
+        try (FilenameDeduplicator deduplicator = new FilenameDeduplicator(10, Long.MAX_VALUE, null, FilenameDeduplicator.MAX_PAGE_SHIFT) {
+            @Override
+            long fingerprint(long folder, CharSequence filename) {
+                return 42;
+            }
+        }) {
+            Stream.of("a", "b", "ab", "ba", "").forEach(name -> assertTrue(deduplicator.add(name)));
+            Stream.of("A", "B", "AB", "bA", "").forEach(name -> assertFalse(deduplicator.add(name)));
+            assertFalse(deduplicator.contains("abc"));
+            assertEquals(5, deduplicator.size());
+        }
+    }
+
+    @Test
+    void givenMoreNamesThanExpected_whenAdded_ThenSameResultsOfHashSet() {
+        try (FilenameDeduplicator deduplicator = FilenameDeduplicator.inMemory(0)) {
+            assertSameResultsOfHashSet(deduplicator, 50_000);
+        }
+    }
+
+    @Test
+    void givenNoMemoryBudget_whenAdded_ThenSpilledToDiskWithSameResultsOfHashSet() throws IOException {
+        Path spillDirectory = Files.createTempDirectory("legendary-utils-test");
+        // Small pages (64KB) and mappings (1MB), so that records span across pages, and pages across mapped regions
+        try (FilenameDeduplicator deduplicator = new FilenameDeduplicator(100, 0, spillDirectory, 20)) {
+            assertSameResultsOfHashSet(deduplicator, 40_000);
+        }
+        try (Stream<Path> files = Files.list(spillDirectory)) {
+            assertEquals(0, files.count());
+        }
+        Files.delete(spillDirectory);
+    }
+
+    @Test
+    void givenNoSpillDirectory_whenBudgetExhausted_ThenIllegalStateExceptionIsThrown() {
+        assertThrows(IllegalStateException.class, () -> new FilenameDeduplicator(10, 0, null, FilenameDeduplicator.MAX_PAGE_SHIFT));
+        assertThrows(NullPointerException.class, () -> FilenameDeduplicator.spillingToDisk(10, 0, null));
+    }
+
+    private static void assertSameResultsOfHashSet(FilenameDeduplicator deduplicator, int names) {
+        Set<String> expected = new HashSet<>();
+        Random random = new Random(42);
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < names; i++) {
+            name.setLength(0);
+            name.append("File ").append(random.nextInt(names)).append(random.nextBoolean() ? ".TXT" : ".txt");
+            int folder = random.nextInt(4);
+            boolean added = expected.add(folder + "/" + name.toString().toLowerCase(Locale.ROOT));
+            assertEquals(added, deduplicator.add(folder, name));
+            assertTrue(deduplicator.contains(folder, name));
+        }
+        assertEquals(expected.size(), deduplicator.size());
+    }
+}
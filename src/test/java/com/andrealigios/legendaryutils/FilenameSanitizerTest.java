@@ -128,6 +128,13 @@ class FilenameSanitizerTest {
 
         assertEquals(FilenameSanitizer.sanitizeSafely(excessiveFileNameOf272Chars), maximumFileNameOf256Chars);
     }    
+    @Test
+    void givenWhitespacesUpToMaxLength_whenSanitizedSafely_ThenPlaceholderIsGenerated() {
+        String whitespacesOf256Chars = String.join("", Collections.nCopies(FilenameSanitizer.MAX_LENGTH, " "));
+
+        assertTrue(FilenameSanitizer.sanitizeSafely(whitespacesOf256Chars + "abc").startsWith(FilenameSanitizer.FILENAME_EMPTY));
+        assertTrue(FilenameSanitizer.sanitizePrettily(whitespacesOf256Chars + "abc").startsWith(FilenameSanitizer.FILENAME_EMPTY));
+    }
 
     // FILENAME EMPTY or WHITESPACES-ONLY
     @Test
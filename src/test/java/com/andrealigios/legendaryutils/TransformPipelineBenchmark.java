@@ -0,0 +1,71 @@
+/* MIT License
+
+Copyright (c) 2018 Andrea Ligios
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+package com.andrealigios.legendaryutils;
+
+/**
+ * Fused TransformPipeline against the sequential calls of WordsCapitalizer and FilenameSanitizer.
+ * <p>
+ * Not a unit test (hence not run by Surefire): launch it manually from the test classpath, with a binding
+ * for SLF4J set at a level higher than DEBUG, otherwise the logging of the sequential calls dominates.
+ */
+public class TransformPipelineBenchmark {
+
+    private static final String[] INPUTS = {
+            "cApItAlIzE this string after WHITE SPACES.txt",
+            "  - .quarterly REPORT: final/draft?*.docx . ",
+            "Questo è un documento Italiano.pdf",
+            "这是一个中文文档.txt",
+            "con.log",
+            "a rather long file name, with several words, that keeps going on and on: part 1 of 2.tar.gz",
+    };
+
+    private static final int WARMUP_ROUNDS      = 5;
+    private static final int MEASURED_ROUNDS    = 10;
+    private static final int ITERATIONS         = 200_000;
+
+    public static void main(String[] args) {
+        TransformPipeline pipeline = TransformPipeline.of(WordsCapitalizer.capitalizeEveryWordStage(), 
+                                                          FilenameSanitizer.sanitizePrettilyStage());
+        long blackhole = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                blackhole += FilenameSanitizer.sanitizePrettily(WordsCapitalizer.capitalizeEveryWord(INPUTS[i % INPUTS.length])).length();
+            }
+            long sequential = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                blackhole += pipeline.apply(INPUTS[i % INPUTS.length]).length();
+            }
+            long fused = System.nanoTime() - start;
+
+            if (round >= WARMUP_ROUNDS) {
+                System.out.printf("round %2d: sequential %6.1f ns/op, fused %6.1f ns/op%n", 
+                        round - WARMUP_ROUNDS + 1, (double) sequential / ITERATIONS, (double) fused / ITERATIONS);
+            }
+        }
+        System.out.println("(" + blackhole + ")");
+    }
+}
@@ -0,0 +1,191 @@
+/* MIT License
+
+Copyright (c) 2018 Andrea Ligios
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+
+package com.andrealigios.legendaryutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import com.andrealigios.legendaryutils.WordsCapitalizer.Behavior;
+import com.andrealigios.legendaryutils.WordsCapitalizer.Delimiter;
+/**
+ * Unit test for TransformPipeline.
+ */
+class TransformPipelineTest {
+
+    private static final String[] INPUTS = {
+            "cApItAlIzE this string after WHITE SPACES",
+            "  - .my REPORT: final/draft?*.txt . ",
+            " --. -- A filename starting with hypen . ",
+            "A filename ending in dot .. .. ",
+            "Questo è un documento Italiano.txt",
+            "这是一个中文文档.txt",
+            "ab 𐐂c de à",
+            "con", "CON.txt", "con.tar.gz", "Lpt9.", "com1 ", ".aux", "nul.a.", "prn..txt",
+            "A filename with control code [\u0001] and tab [\t]",
+            "\u0001\u0002 leading controls",
+            "trailing controls \u0001 . \u0002",
+            "abc.\t", "abc. \t", "\t-abc", "-\t-abc",
+            "....", "----", " ", "\t",
+            String.join("", Collections.nCopies(17, "1234567890abcdef")),
+            String.join("", Collections.nCopies(16, "con.")) + " and more",
+            String.join("", Collections.nCopies(257, " ")) + "abc",
+            String.join("", Collections.nCopies(257, "\u0001")) + "abc",
+    };
+
+    @Test
+    void givenCapitalizerAndPrettySanitizer_whenFused_ThenSameOutputOfSequentialCalls() {
+        TransformPipeline pipeline = TransformPipeline.of(WordsCapitalizer.capitalizeEveryWordStage(), 
+                                                          FilenameSanitizer.sanitizePrettilyStage());
+        Stream.of(INPUTS).forEach(input -> {
+            String expected = FilenameSanitizer.sanitizePrettily(WordsCapitalizer.capitalizeEveryWord(input));
+            assertSameOutput(expected, pipeline.apply(input));
+        });
+    }
+
+    @Test
+    void givenSingleStages_whenApplied_ThenSameOutputOfUtilities() {
+        TransformPipeline capitalizer = TransformPipeline.of(WordsCapitalizer.capitalizeEveryWordStage(Locale.ROOT));
+        TransformPipeline standard    = TransformPipeline.of(FilenameSanitizer.sanitizeStage());
+        TransformPipeline safe        = TransformPipeline.of(FilenameSanitizer.sanitizeSafelyStage());
+        TransformPipeline pretty      = TransformPipeline.of(FilenameSanitizer.sanitizePrettilyStage());
+
+        Stream.of(INPUTS).forEach(input -> {
+            assertEquals(WordsCapitalizer.capitalizeEveryWord(input, Locale.ROOT), capitalizer.apply(input));
+            assertSameOutput(FilenameSanitizer.sanitizeSafely(input), safe.apply(input));
+            assertSameOutput(FilenameSanitizer.sanitizePrettily(input), pretty.apply(input));
+            if (input.trim().isEmpty() || input.length() > FilenameSanitizer.MAX_LENGTH) {
+                assertThrows(IllegalArgumentException.class, () -> standard.apply(input));
+            } else {
+                assertEquals(FilenameSanitizer.sanitize(input), standard.apply(input));
+            }
+        });
+    }
+
+    @Test
+    void givenRandomInputs_whenFused_ThenSameOutputOfSequentialCalls() {
+        TransformPipeline pipeline = TransformPipeline.of(WordsCapitalizer.capitalizeEveryWordStage(), 
+                                                          FilenameSanitizer.sanitizePrettilyStage());
+        TransformPipeline safe     = TransformPipeline.of(FilenameSanitizer.sanitizeSafelyStage());
+        String alphabet = "aBcON.-- \t\u0001<>:\"/\\|?*'#èÀ";
+        Random random = new Random(42);
+        for (int i = 0; i < 2_000; i++) {
+            StringBuilder input = new StringBuilder();
+            int length = 1 + random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                input.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String expected = FilenameSanitizer.sanitizePrettily(WordsCapitalizer.capitalizeEveryWord(input.toString()));
+            assertSameOutput(expected, pipeline.apply(input));
+            assertSameOutput(FilenameSanitizer.sanitizeSafely(input.toString()), safe.apply(input));
+        }
+    }
+
+    @Test
+    void givenCustomDelimitersAndLocale_whenFused_ThenSameOutputOfSequentialCalls() {
+        String testString = "DİYARBAKIR o'brian#LOG#:FILE.txt";
+        List<Delimiter> delimiters = new ArrayList<Delimiter>();
+        delimiters.add(new Delimiter(Behavior.CAPITALIZE_AFTER_MARKER, ' '));
+        delimiters.add(new Delimiter(Behavior.CAPITALIZE_AFTER_MARKER, '\''));
+        delimiters.add(new Delimiter(Behavior.CAPITALIZE_BEFORE_AND_AFTER_MARKER, '#'));
+
+        Stream.of(Locale.ROOT, Locale.forLanguageTag("tr-TR")).forEach(locale -> {
+            TransformPipeline pipeline = TransformPipeline.of(WordsCapitalizer.capitalizeEveryWordStage(delimiters, locale), 
+                                                              FilenameSanitizer.sanitizeSafelyStage());
+            assertEquals(FilenameSanitizer.sanitizeSafely(WordsCapitalizer.capitalizeEveryWord(testString, delimiters, locale)), 
+                         pipeline.apply(testString));
+        });
+    }
+
+    @Test
+    void givenContextualCasing_whenCapitalizedByStage_ThenSameOutputOfCapitalizer() {
+        String[] inputs = {
+                "I\u0307stanbul", "ISTANBUL I\u0307ZMI\u0307R", "I\u0316\u0307 I\u0301\u0307 \u0307I", "DİYARBAKIR",
+                "ABI\u0300C", "ĮI\u0301 J\u0316\u0303 Ì Í Ĩ I\u0316",
+                "ΟΔΟΣ", "ΟΔΟΣ ΚΑΙ ΣΟΦΙΑ.txt", "ΑΣ.Β ΑΣ..Β ΑΣ_Β ΑΣ__Β Α'Σ 1Σ Σ", "ΑΣ\u0301", "ΑΣ𐐂",
+                "1*𐐂-Σ𐀀Σ", "1\"Σ𐀀Σ𐀀B",
+        };
+        Stream.of(Locale.ROOT, Locale.forLanguageTag("tr-TR"), Locale.forLanguageTag("az"), 
+                  Locale.forLanguageTag("lt-LT"), Locale.forLanguageTag("el-GR")).forEach(locale -> {
+            TransformPipeline pipeline = TransformPipeline.of(WordsCapitalizer.capitalizeEveryWordStage(locale));
+            Stream.of(inputs).forEach(input -> 
+                assertEquals(WordsCapitalizer.capitalizeEveryWord(input, locale), pipeline.apply(input), locale + ": " + input));
+        });
+    }
+
+    @Test
+    void givenRandomContextualCasing_whenCapitalizedByStage_ThenSameOutputOfCapitalizer() {
+        String alphabet = "IiJĮİÌΣσa \u0307\u0300\u0316\u0345.'_1*-\"𐐂𐀀";
+        Random random = new Random(42);
+        Stream.of(Locale.ROOT, Locale.forLanguageTag("tr-TR"), Locale.forLanguageTag("lt-LT")).forEach(locale -> {
+            TransformPipeline pipeline = TransformPipeline.of(WordsCapitalizer.capitalizeEveryWordStage(locale));
+            for (int i = 0; i < 2_000; i++) {
+                StringBuilder input = new StringBuilder();
+                int length = 1 + random.nextInt(16);
+                for (int j = 0; j < length; j++) {
+                    input.appendCodePoint(alphabet.codePointAt(alphabet.offsetByCodePoints(0, random.nextInt(alphabet.codePointCount(0, alphabet.length())))));
+                }
+                assertEquals(WordsCapitalizer.capitalizeEveryWord(input.toString(), locale), pipeline.apply(input), locale + ": " + input);
+            }
+        });
+    }
+
+    @Test
+    void givenNull_whenFusedWithSafeSanitizerFirst_ThenPlaceholderIsGenerated() {
+        assertTrue(TransformPipeline.of(FilenameSanitizer.sanitizePrettilyStage(), WordsCapitalizer.capitalizeEveryWordStage())
+                .apply(null).startsWith("Filename-parameter-was-null-at-time-"));
+        assertThrows(NullPointerException.class, () -> TransformPipeline.of(FilenameSanitizer.sanitizeStage()).apply(null));
+        assertThrows(NullPointerException.class, () -> TransformPipeline.of(WordsCapitalizer.capitalizeEveryWordStage()).apply(null));
+    }
+
+    @Test
+    void givenNoStages_whenApplied_ThenOutputUnchanged() {
+        assertEquals("unchanged", TransformPipeline.of().apply("unchanged"));
+    }
+
+    @Test
+    void givenOutputBuilder_whenAppliedTo_ThenResultIsAppended() {
+        TransformPipeline pipeline = TransformPipeline.of(FilenameSanitizer.sanitizeStage());
+        StringBuilder output = new StringBuilder("folder/");
+        assertEquals("folder/a_b", pipeline.applyTo("a:b", output).toString());
+    }
+
+    private static void assertSameOutput(String expected, String actual) {
+        // Generated placeholders are unique, only their fixed part can be compared
+        if (expected.startsWith(FilenameSanitizer.FILENAME_EMPTY)) {
+            assertTrue(actual.startsWith(FilenameSanitizer.FILENAME_EMPTY), actual);
+        } else {
+            assertEquals(expected, actual);
+        }
+    }
+}